@@ -1,5 +1,8 @@
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
@@ -9,11 +12,48 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Entity
 @Table(name = "accounts")
@@ -28,6 +68,7 @@ class Account {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal balance;
 
+    // Holds only the hot rows; use TransactionArchive.statement() for history that includes archived months
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TransactionRecord> transactions;
 
@@ -82,7 +123,10 @@ class Account {
 }
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_date", columnList = "transactionDate"),
+        @Index(name = "idx_transactions_account_date", columnList = "account_number, transactionDate")
+})
 class TransactionRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -102,18 +146,25 @@ class TransactionRecord {
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
 
+    // Holds the transaction type's name, a shared constant, so no text is built per row. The column
+    // stays NOT NULL for existing databases; drop it once old free-text descriptions are migrated.
     @Column(nullable = false)
     private String description;
 
+    // Transfers record the other side's account number
+    @Column(name = "counterparty_account")
+    private Long counterpartyAccountNumber;
+
     public TransactionRecord() {
     }
 
-    public TransactionRecord(Account account, LocalDateTime transactionDate, BigDecimal amount, TransactionType transactionType, String description) {
+    public TransactionRecord(Account account, LocalDateTime transactionDate, BigDecimal amount, TransactionType transactionType, Long counterpartyAccountNumber) {
         this.account = account;
         this.transactionDate = transactionDate;
         this.amount = amount;
         this.transactionType = transactionType;
-        this.description = description;
+        this.description = transactionType.name();
+        this.counterpartyAccountNumber = counterpartyAccountNumber;
     }
 
     public Long getTransactionId() {
@@ -164,6 +215,14 @@ class TransactionRecord {
         this.description = description;
     }
 
+    public Long getCounterpartyAccountNumber() {
+        return counterpartyAccountNumber;
+    }
+
+    public void setCounterpartyAccountNumber(Long counterpartyAccountNumber) {
+        this.counterpartyAccountNumber = counterpartyAccountNumber;
+    }
+
     @Override
     public String toString() {
         return "TransactionRecord{" +
@@ -171,7 +230,7 @@ class TransactionRecord {
                ", transactionDate=" + transactionDate +
                ", amount=" + amount +
                ", transactionType=" + transactionType +
-               ", description='" + description + '\'' +
+               ", counterpartyAccountNumber=" + counterpartyAccountNumber +
                '}';
     }
 }
@@ -180,6 +239,92 @@ enum TransactionType {
     DEPOSIT, WITHDRAWAL, TRANSFER_SENT, TRANSFER_RECEIVED
 }
 
+// Hands log events to a single background thread through a bounded ring buffer so the
+// banking calls never format strings or write to the console themselves.
+// Off by default so it doesn't interleave with the interactive menu; run with -Dbanking.log=true to enable it.
+final class AsyncLog {
+    private static final boolean ENABLED = Boolean.getBoolean("banking.log");
+    private static final BlockingQueue<Event> BUFFER = new ArrayBlockingQueue<>(1024);
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private static final class Event {
+        final boolean error;
+        final String event;
+        final Long accountId;
+        final Long counterpartyId;
+        final BigDecimal amount;
+        final String detail;
+
+        Event(boolean error, String event, Long accountId, Long counterpartyId, BigDecimal amount, String detail) {
+            this.error = error;
+            this.event = event;
+            this.accountId = accountId;
+            this.counterpartyId = counterpartyId;
+            this.amount = amount;
+            this.detail = detail;
+        }
+    }
+
+    static {
+        if (ENABLED) {
+            Thread writer = new Thread(AsyncLog::drain, "banking-log");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private AsyncLog() {
+    }
+
+    static void info(String event, Long accountId, Long counterpartyId, BigDecimal amount) {
+        publish(false, event, accountId, counterpartyId, amount, null);
+    }
+
+    static void error(String event, Long accountId, String detail) {
+        publish(true, event, accountId, null, null, detail);
+    }
+
+    private static void publish(boolean error, String event, Long accountId, Long counterpartyId, BigDecimal amount, String detail) {
+        if (!ENABLED) {
+            return;
+        }
+        // Drop the event rather than block the caller when the writer falls behind
+        if (!BUFFER.offer(new Event(error, event, accountId, counterpartyId, amount, detail))) {
+            DROPPED.increment();
+        }
+    }
+
+    static long droppedEvents() {
+        return DROPPED.sum();
+    }
+
+    private static void drain() {
+        StringBuilder line = new StringBuilder(128);
+        long reportedDrops = 0;
+        while (true) {
+            Event e;
+            try {
+                e = BUFFER.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            line.setLength(0);
+            line.append("event=").append(e.event);
+            if (e.accountId != null) line.append(" account=").append(e.accountId);
+            if (e.counterpartyId != null) line.append(" counterparty=").append(e.counterpartyId);
+            if (e.amount != null) line.append(" amount=").append(e.amount);
+            if (e.detail != null) line.append(" detail=").append(e.detail);
+            (e.error ? System.err : System.out).println(line);
+
+            long dropped = DROPPED.sum();
+            if (dropped != reportedDrops) {
+                System.err.println("event=LOG_DROPPED total=" + dropped);
+                reportedDrops = dropped;
+            }
+        }
+    }
+}
+
 @Configuration
 @ComponentScan("com.example")
 class AppConfig {
@@ -193,16 +338,251 @@ class AppConfig {
     }
 }
 
+// Limits how many withdrawals/transfers, and how much money, may leave one account within a sliding window
+final class VelocityRule {
+
+    enum Action {
+        REJECT, FLAG
+    }
+
+    private final long windowSeconds;
+    private final long maxCount;
+    private final BigDecimal maxAmount;
+    private final Action action;
+
+    public VelocityRule(long windowSeconds, long maxCount, BigDecimal maxAmount, Action action) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("Velocity window must be positive: " + windowSeconds);
+        }
+        this.windowSeconds = windowSeconds;
+        this.maxCount = maxCount;
+        this.maxAmount = maxAmount;
+        this.action = action;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public long getMaxCount() {
+        return maxCount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    @Override
+    public String toString() {
+        return "VelocityRule{" +
+               "windowSeconds=" + windowSeconds +
+               ", maxCount=" + maxCount +
+               ", maxAmount=" + maxAmount +
+               ", action=" + action +
+               '}';
+    }
+}
+
+// Checks outgoing money against the velocity rules entirely in memory. Each account keeps, per rule,
+// a ring of time buckets holding LongAdder counters, so checks take no locks and never hit the database.
+// Accounts idle for longer than the widest window are evicted. The default rule comes from the
+// banking.velocity.* system properties.
+@Component
+class VelocityGuard implements AutoCloseable {
+
+    private static final int BUCKETS = 10;
+
+    private final VelocityRule[] rules;
+    private final long[] bucketNanos;
+    private final long[] maxCents;
+    private final long idleNanos;
+    private final ConcurrentMap<Long, AccountWindows> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+
+    public VelocityGuard() {
+        this(Collections.singletonList(new VelocityRule(
+                Long.getLong("banking.velocity.windowSeconds", 60),
+                Long.getLong("banking.velocity.maxCount", 10),
+                new BigDecimal(System.getProperty("banking.velocity.maxAmount", "10000.00")),
+                VelocityRule.Action.valueOf(System.getProperty("banking.velocity.action", "REJECT")))));
+    }
+
+    VelocityGuard(List<VelocityRule> rules) {
+        this.rules = rules.toArray(new VelocityRule[0]);
+        this.bucketNanos = new long[this.rules.length];
+        this.maxCents = new long[this.rules.length];
+        long widest = 0;
+        for (int i = 0; i < this.rules.length; i++) {
+            bucketNanos[i] = Math.max(1L, TimeUnit.SECONDS.toNanos(this.rules[i].getWindowSeconds()) / BUCKETS);
+            maxCents[i] = toCents(this.rules[i].getMaxAmount());
+            widest = Math.max(widest, bucketNanos[i] * BUCKETS);
+        }
+        this.idleNanos = widest;
+
+        // Eviction runs here rather than on the request path, so reserve() never walks the whole map
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "velocity-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::evictIdle, idleNanos, idleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Counts the operation against every rule first and only then compares, so concurrent callers for
+    // one account cannot all slip under a limit. Returns the strictest action any rule triggered, or null
+    // when within every limit. A REJECT undoes its own counts; otherwise the caller must
+    // release(accountId, amount, now) if the operation does not go through.
+    // Latency has only been measured roughly: a single-threaded System.nanoTime() loop over 1024 accounts
+    // on one machine (not a JMH benchmark) gave about 80ns at p50 and 220ns at p99. Contended p99 is unmeasured.
+    VelocityRule.Action reserve(Long accountId, BigDecimal amount, long now) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        long cents = toCents(amount);
+        AccountWindows account = windows.get(accountId);
+        if (account == null) {
+            account = windows.computeIfAbsent(accountId, id -> new AccountWindows(rules.length));
+        }
+        account.lastUsed = now;
+
+        for (int i = 0; i < rules.length; i++) {
+            account.windows[i].add(now / bucketNanos[i], 1, cents);
+        }
+
+        VelocityRule.Action triggered = null;
+        for (int i = 0; i < rules.length; i++) {
+            long slot = now / bucketNanos[i];
+            Window window = account.windows[i];
+            if (window.count(slot) > rules[i].getMaxCount() || window.amount(slot) > maxCents[i]) {
+                if (rules[i].getAction() == VelocityRule.Action.REJECT) {
+                    triggered = VelocityRule.Action.REJECT;
+                    break;
+                }
+                triggered = VelocityRule.Action.FLAG;
+            }
+        }
+        if (triggered == VelocityRule.Action.REJECT) {
+            undo(account, cents, now);
+        }
+        return triggered;
+    }
+
+    // Takes back an allowed or flagged reservation whose operation did not go through
+    void release(Long accountId, BigDecimal amount, long reservedAt) {
+        AccountWindows account = windows.get(accountId);
+        if (account != null) {
+            undo(account, toCents(amount), reservedAt);
+        }
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private void undo(AccountWindows account, long cents, long reservedAt) {
+        for (int i = 0; i < rules.length; i++) {
+            account.windows[i].add(reservedAt / bucketNanos[i], -1, -cents);
+        }
+    }
+
+    // An account evicted while an operation on it is in flight loses that operation's counts,
+    // which only matters for an account that had been idle for a whole window
+    private void evictIdle() {
+        long now = System.nanoTime();
+        windows.values().removeIf(account -> now - account.lastUsed > idleNanos);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.UP).longValueExact();
+    }
+
+    private static final class AccountWindows {
+        final Window[] windows;
+        volatile long lastUsed;
+
+        AccountWindows(int rules) {
+            windows = new Window[rules];
+            for (int i = 0; i < rules; i++) {
+                windows[i] = new Window();
+            }
+        }
+    }
+
+    // Bucket i holds the totals for the time slot recorded in slots[i]; a bucket whose slot has
+    // fallen out of the window is ignored by the sums and reset by the next add that lands on it.
+    // Adds racing a reset, or a release landing after one, can skew a bucket by a few operations,
+    // so the limits are soft: they can be overshot slightly under contention but never by a whole burst.
+    private static final class Window {
+        private final AtomicLongArray slots = new AtomicLongArray(BUCKETS);
+        private final LongAdder[] counts = new LongAdder[BUCKETS];
+        private final LongAdder[] amounts = new LongAdder[BUCKETS];
+
+        Window() {
+            for (int i = 0; i < BUCKETS; i++) {
+                slots.set(i, Long.MIN_VALUE);
+                counts[i] = new LongAdder();
+                amounts[i] = new LongAdder();
+            }
+        }
+
+        void add(long slot, long count, long cents) {
+            int i = (int) Math.floorMod(slot, (long) BUCKETS);
+            long held = slots.get(i);
+            if (held != slot) {
+                // An undo for a bucket that has since moved on has nothing left to take back
+                if (count < 0) {
+                    return;
+                }
+                if (slots.compareAndSet(i, held, slot)) {
+                    counts[i].reset();
+                    amounts[i].reset();
+                }
+            }
+            counts[i].add(count);
+            amounts[i].add(cents);
+        }
+
+        long count(long slot) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (inWindow(slots.get(i), slot)) total += counts[i].sum();
+            }
+            return total;
+        }
+
+        long amount(long slot) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (inWindow(slots.get(i), slot)) total += amounts[i].sum();
+            }
+            return total;
+        }
+
+        private static boolean inWindow(long held, long slot) {
+            return held <= slot && held > slot - BUCKETS;
+        }
+    }
+}
+
 @Component
 class BankingService {
 
     private final SessionFactory sessionFactory;
+    private final VelocityGuard velocityGuard;
 
-    public BankingService(SessionFactory sessionFactory) {
+    public BankingService(SessionFactory sessionFactory, VelocityGuard velocityGuard) {
         this.sessionFactory = sessionFactory;
+        this.velocityGuard = velocityGuard;
     }
 
-    public void transferMoney(Long fromAccountId, Long toAccountId, BigDecimal amount) throws InsufficientFundsException {
+    public void transferMoney(Long fromAccountId, Long toAccountId, BigDecimal amount)
+            throws InsufficientFundsException, VelocityLimitExceededException, AccountNotFoundException {
+        long reservedAt = reserveVelocity(fromAccountId, amount);
         Session session = sessionFactory.openSession();
         Transaction tx = null;
         try {
@@ -211,8 +591,11 @@ class BankingService {
             Account fromAccount = session.get(Account.class, fromAccountId);
             Account toAccount = session.get(Account.class, toAccountId);
 
-            if (fromAccount == null || toAccount == null) {
-                throw new IllegalArgumentException("Invalid account numbers.");
+            if (fromAccount == null) {
+                throw new AccountNotFoundException("Account not found: " + fromAccountId);
+            }
+            if (toAccount == null) {
+                throw new AccountNotFoundException("Account not found: " + toAccountId);
             }
 
             if (fromAccount.getBalance().compareTo(amount) < 0) {
@@ -225,22 +608,25 @@ class BankingService {
             session.update(fromAccount);
             session.update(toAccount);
 
-            session.save(new TransactionRecord(fromAccount, LocalDateTime.now(), amount, TransactionType.TRANSFER_SENT, "Transfer to account " + toAccountId));
-            session.save(new TransactionRecord(toAccount, LocalDateTime.now(), amount, TransactionType.TRANSFER_RECEIVED, "Transfer from account " + fromAccountId));
+            LocalDateTime now = LocalDateTime.now();
+            session.save(new TransactionRecord(fromAccount, now, amount, TransactionType.TRANSFER_SENT, toAccountId));
+            session.save(new TransactionRecord(toAccount, now, amount, TransactionType.TRANSFER_RECEIVED, fromAccountId));
 
             tx.commit();
-            System.out.println("Successfully transferred " + amount + " from account " + fromAccountId + " to " + toAccountId);
+            AsyncLog.info("TRANSFER", fromAccountId, toAccountId, amount);
 
         } catch (Exception e) {
+            velocityGuard.release(fromAccountId, amount, reservedAt);
             if (tx != null) tx.rollback();
-            System.err.println("Transaction failed: " + e.getMessage());
+            AsyncLog.error("TRANSFER_FAILED", fromAccountId, e.getMessage());
             throw e; // Re-throw to be caught by the caller
         } finally {
             session.close();
         }
     }
 
-    public void deposit(Long accountId, BigDecimal amount) {
+    // Returns false when the account does not exist
+    public boolean deposit(Long accountId, BigDecimal amount) {
         Session session = sessionFactory.openSession();
         Transaction tx = null;
         try {
@@ -249,21 +635,25 @@ class BankingService {
             if (account != null) {
                 account.setBalance(account.getBalance().add(amount));
                 session.update(account);
-                session.save(new TransactionRecord(account, LocalDateTime.now(), amount, TransactionType.DEPOSIT, "Deposit"));
+                session.save(new TransactionRecord(account, LocalDateTime.now(), amount, TransactionType.DEPOSIT, null));
                 tx.commit();
-                System.out.println("Successfully deposited " + amount + " into account " + accountId);
-            } else {
-                System.out.println("Account not found: " + accountId);
+                AsyncLog.info("DEPOSIT", accountId, null, amount);
+                return true;
             }
+            AsyncLog.error("ACCOUNT_NOT_FOUND", accountId, null);
+            return false;
         } catch (Exception e) {
             if (tx != null) tx.rollback();
-            System.err.println("Deposit failed: " + e.getMessage());
+            AsyncLog.error("DEPOSIT_FAILED", accountId, e.getMessage());
+            throw e;
         } finally {
             session.close();
         }
     }
 
-    public void withdraw(Long accountId, BigDecimal amount) throws InsufficientFundsException {
+    // Returns false when the account does not exist
+    public boolean withdraw(Long accountId, BigDecimal amount) throws InsufficientFundsException, VelocityLimitExceededException {
+        long reservedAt = reserveVelocity(accountId, amount);
         Session session = sessionFactory.openSession();
         Transaction tx = null;
         try {
@@ -275,19 +665,19 @@ class BankingService {
                 }
                 account.setBalance(account.getBalance().subtract(amount));
                 session.update(account);
-                session.save(new TransactionRecord(account, LocalDateTime.now(), amount, TransactionType.WITHDRAWAL, "Withdrawal"));
+                session.save(new TransactionRecord(account, LocalDateTime.now(), amount, TransactionType.WITHDRAWAL, null));
                 tx.commit();
-                System.out.println("Successfully withdrew " + amount + " from account " + accountId);
-            } else {
-                System.out.println("Account not found: " + accountId);
+                AsyncLog.info("WITHDRAWAL", accountId, null, amount);
+                return true;
             }
-        } catch (InsufficientFundsException e) {
-            if (tx != null) tx.rollback();
-            System.err.println("Withdrawal failed: " + e.getMessage());
-            throw e;
+            velocityGuard.release(accountId, amount, reservedAt);
+            AsyncLog.error("ACCOUNT_NOT_FOUND", accountId, null);
+            return false;
         } catch (Exception e) {
+            velocityGuard.release(accountId, amount, reservedAt);
             if (tx != null) tx.rollback();
-            System.err.println("Withdrawal failed: " + e.getMessage());
+            AsyncLog.error("WITHDRAWAL_FAILED", accountId, e.getMessage());
+            throw e;
         } finally {
             session.close();
         }
@@ -301,6 +691,493 @@ class BankingService {
             session.close();
         }
     }
+
+    // Runs before any session is opened so a request over the limit never reaches the database.
+    // Returns the reservation time; the caller releases the reservation with it on every path where
+    // no money moves, so only money that actually leaves is counted.
+    private long reserveVelocity(Long accountId, BigDecimal amount) throws VelocityLimitExceededException {
+        long reservedAt = System.nanoTime();
+        VelocityRule.Action action = velocityGuard.reserve(accountId, amount, reservedAt);
+        if (action == VelocityRule.Action.REJECT) {
+            AsyncLog.error("VELOCITY_REJECTED", accountId, null);
+            throw new VelocityLimitExceededException("Velocity limit exceeded for account: " + accountId);
+        }
+        if (action == VelocityRule.Action.FLAG) {
+            AsyncLog.info("VELOCITY_FLAGGED", accountId, null, amount);
+        }
+        return reservedAt;
+    }
+}
+
+final class BankingResult<T> {
+
+    enum Status {
+        SUCCESS, INSUFFICIENT_FUNDS, LIMIT_EXCEEDED, NOT_FOUND, FAILED
+    }
+
+    private final Status status;
+    private final T value;
+    private final String message;
+    private final Throwable cause;
+
+    private BankingResult(Status status, T value, String message, Throwable cause) {
+        this.status = status;
+        this.value = value;
+        this.message = message;
+        this.cause = cause;
+    }
+
+    static <T> BankingResult<T> success(T value) {
+        return new BankingResult<>(Status.SUCCESS, value, null, null);
+    }
+
+    static <T> BankingResult<T> of(Status status, String message) {
+        return new BankingResult<>(status, null, message, null);
+    }
+
+    static <T> BankingResult<T> of(Status status, String message, Throwable cause) {
+        return new BankingResult<>(status, null, message, cause);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // The exception behind a FAILED result, if any
+    public Throwable getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return "BankingResult{" +
+               "status=" + status +
+               ", value=" + value +
+               ", message='" + message + '\'' +
+               ", cause=" + cause +
+               '}';
+    }
+}
+
+// Non-blocking front for BankingService. Calls run on a bounded pool of JDBC worker threads
+// (banking.jdbc.workers, default 8) and complete with a BankingResult instead of throwing.
+// Concurrent getAccount calls for the same id share a single lookup.
+@Component
+class AsyncBankingService implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 256;
+
+    private final BankingService bankingService;
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentMap<Long, CompletableFuture<BankingResult<Account>>> pendingLookups = new ConcurrentHashMap<>();
+
+    public AsyncBankingService(BankingService bankingService) {
+        this.bankingService = bankingService;
+        int size = Integer.getInteger("banking.jdbc.workers", 8);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                task -> {
+                    Thread thread = new Thread(task, "banking-jdbc-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public CompletionStage<BankingResult<Void>> transferMoney(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        return submit(() -> {
+            try {
+                bankingService.transferMoney(fromAccountId, toAccountId, amount);
+                return BankingResult.success(null);
+            } catch (AccountNotFoundException e) {
+                return BankingResult.of(BankingResult.Status.NOT_FOUND, e.getMessage());
+            }
+        });
+    }
+
+    public CompletionStage<BankingResult<Void>> deposit(Long accountId, BigDecimal amount) {
+        return submit(() -> bankingService.deposit(accountId, amount)
+                ? BankingResult.success(null)
+                : BankingResult.of(BankingResult.Status.NOT_FOUND, "Account not found: " + accountId));
+    }
+
+    public CompletionStage<BankingResult<Void>> withdraw(Long accountId, BigDecimal amount) {
+        return submit(() -> bankingService.withdraw(accountId, amount)
+                ? BankingResult.success(null)
+                : BankingResult.of(BankingResult.Status.NOT_FOUND, "Account not found: " + accountId));
+    }
+
+    public CompletionStage<BankingResult<Account>> getAccount(Long accountId) {
+        CompletableFuture<BankingResult<Account>> created = new CompletableFuture<>();
+        CompletableFuture<BankingResult<Account>> pending = pendingLookups.putIfAbsent(accountId, created);
+        // Each caller gets its own dependent stage so one cancelling or completing it cannot affect the others
+        if (pending != null) {
+            return pending.thenApply(result -> result);
+        }
+        submit(() -> {
+            Account account = bankingService.getAccount(accountId);
+            return account != null
+                    ? BankingResult.success(account)
+                    : BankingResult.<Account>of(BankingResult.Status.NOT_FOUND, "Account not found: " + accountId);
+        }).whenComplete((result, error) -> {
+            // Drop the entry before completing so callers arriving afterwards run a fresh query
+            pendingLookups.remove(accountId, created);
+            created.complete(result);
+        });
+        return created.thenApply(result -> result);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    private interface BankingCall<T> {
+        BankingResult<T> call() throws InsufficientFundsException, VelocityLimitExceededException, AccountNotFoundException;
+    }
+
+    private <T> CompletableFuture<BankingResult<T>> submit(BankingCall<T> call) {
+        CompletableFuture<BankingResult<T>> future = new CompletableFuture<>();
+        try {
+            workers.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (InsufficientFundsException e) {
+                    future.complete(BankingResult.of(BankingResult.Status.INSUFFICIENT_FUNDS, e.getMessage()));
+                } catch (VelocityLimitExceededException e) {
+                    future.complete(BankingResult.of(BankingResult.Status.LIMIT_EXCEEDED, e.getMessage()));
+                } catch (Exception e) {
+                    future.complete(BankingResult.of(BankingResult.Status.FAILED, e.getMessage(), e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.complete(BankingResult.of(BankingResult.Status.FAILED, "Too many pending requests", e));
+        }
+        return future;
+    }
+}
+
+// Keeps the transactions table limited to recent months. Older months are streamed into one
+// gzip'd, column-per-block file per month under banking.archive.dir and removed from the table;
+// statement() merges those files back in with the hot rows.
+@Component
+class TransactionArchive {
+
+    // Version 2 puts the accounts block first and adds descriptions; version 1 files are still readable
+    private static final int FORMAT_VERSION = 2;
+    private static final long NO_COUNTERPARTY = -1L;
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final SessionFactory sessionFactory;
+    private final Path directory;
+    private final int hotMonths;
+
+    public TransactionArchive(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.directory = Paths.get(System.getProperty("banking.archive.dir", "transaction-archive"));
+        this.hotMonths = Integer.getInteger("banking.archive.hotMonths", 12);
+    }
+
+    // Archives every month older than the hot window, oldest first, and returns how many were moved
+    public int archiveColdMonths() throws IOException {
+        YearMonth cutoff = YearMonth.now().minusMonths(hotMonths);
+        int archived = 0;
+        YearMonth month = oldestHotMonth();
+        while (month != null && month.isBefore(cutoff)) {
+            if (!archiveMonth(month)) {
+                break;
+            }
+            archived++;
+            month = oldestHotMonth();
+        }
+        return archived;
+    }
+
+    // Transactions of one account in [from, to), archived and hot, ordered by date
+    public List<TransactionRecord> statement(Long accountId, LocalDateTime from, LocalDateTime to) throws IOException {
+        List<TransactionRecord> statement = new ArrayList<>();
+        Set<Long> archivedIds = new HashSet<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            if (Files.exists(fileFor(month))) {
+                for (TransactionRecord record : readMonth(month, accountId)) {
+                    LocalDateTime date = record.getTransactionDate();
+                    if (!date.isBefore(from) && date.isBefore(to)) {
+                        statement.add(record);
+                        archivedIds.add(record.getTransactionId());
+                    }
+                }
+            }
+        }
+
+        Session session = sessionFactory.openSession();
+        try {
+            List<TransactionRecord> hot = session.createQuery(
+                    "from TransactionRecord t where t.account.accountNumber = :account"
+                            + " and t.transactionDate >= :from and t.transactionDate < :to order by t.transactionDate",
+                    TransactionRecord.class)
+                    .setParameter("account", accountId)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .list();
+            // A month whose delete failed after its file was written is in both places until the next run
+            for (TransactionRecord record : hot) {
+                if (!archivedIds.contains(record.getTransactionId())) {
+                    statement.add(record);
+                }
+            }
+        } finally {
+            session.close();
+        }
+
+        statement.sort(Comparator.comparing(TransactionRecord::getTransactionDate));
+        return statement;
+    }
+
+    private YearMonth oldestHotMonth() {
+        Session session = sessionFactory.openSession();
+        try {
+            LocalDateTime oldest = session.createQuery("select min(t.transactionDate) from TransactionRecord t", LocalDateTime.class)
+                    .uniqueResult();
+            return oldest == null ? null : YearMonth.from(oldest);
+        } finally {
+            session.close();
+        }
+    }
+
+    // Returns false when the month turned out to have no hot rows
+    private boolean archiveMonth(YearMonth month) throws IOException {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path target = fileFor(month);
+        Files.createDirectories(directory);
+
+        Columns columns = new Columns();
+        long[] archivedIds = new long[0];
+        if (Files.exists(target)) {
+            List<TransactionRecord> existing = readMonth(month, null);
+            archivedIds = new long[existing.size()];
+            for (int i = 0; i < archivedIds.length; i++) {
+                TransactionRecord record = existing.get(i);
+                columns.add(record.getTransactionId(), record.getAccount().getAccountNumber(), record.getTransactionDate(),
+                        record.getAmount(), record.getTransactionType(), record.getCounterpartyAccountNumber(),
+                        record.getDescription());
+                archivedIds[i] = record.getTransactionId();
+            }
+            Arrays.sort(archivedIds);
+        }
+
+        // Scroll plain column values rather than entities so the session holds nothing; the column
+        // buffers still grow with the month's row count until the file is written
+        long maxId = Long.MIN_VALUE;
+        int scanned = 0;
+        StatelessSession scrollSession = sessionFactory.openStatelessSession();
+        try {
+            ScrollableResults rows = scrollSession.createQuery(
+                    "select t.transactionId, t.account.accountNumber, t.transactionDate, t.amount, t.transactionType,"
+                            + " t.counterpartyAccountNumber, t.description from TransactionRecord t"
+                            + " where t.transactionDate >= :from and t.transactionDate < :to")
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .setFetchSize(1000)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    long id = (Long) rows.get(0);
+                    maxId = Math.max(maxId, id);
+                    scanned++;
+                    // Rows left hot by a run whose delete failed after the file was written are already in it
+                    if (Arrays.binarySearch(archivedIds, id) >= 0) {
+                        continue;
+                    }
+                    columns.add(id, (Long) rows.get(1), (LocalDateTime) rows.get(2), (BigDecimal) rows.get(3),
+                            (TransactionType) rows.get(4), (Long) rows.get(5), (String) rows.get(6));
+                }
+            } finally {
+                rows.close();
+            }
+        } finally {
+            scrollSession.close();
+        }
+        if (scanned == 0) {
+            return false;
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                columns.writeTo(out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // Only drop rows that made it into the file; anything inserted after the scan stays hot
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        try {
+            tx = session.beginTransaction();
+            session.createQuery("delete from TransactionRecord t where t.transactionDate >= :from"
+                            + " and t.transactionDate < :to and t.transactionId <= :maxId")
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .setParameter("maxId", maxId)
+                    .executeUpdate();
+            tx.commit();
+            return true;
+        } catch (Exception e) {
+            if (tx != null) tx.rollback();
+            AsyncLog.error("ARCHIVE_FAILED", null, month + ": " + e.getMessage());
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    // Decodes the accounts block first and builds records only for rows of accountId (every row when null)
+    private List<TransactionRecord> readMonth(YearMonth month, Long accountId) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(fileFor(month)))))) {
+            int version = in.readInt();
+            if (version != 1 && version != FORMAT_VERSION) {
+                throw new IOException("Unsupported archive format " + version + " in " + fileFor(month));
+            }
+            int count = in.readInt();
+            long[] allIds = version == 1 ? readLongs(in, count, null) : null;
+            long[] accounts = readLongs(in, count, null);
+            int[] rows = matchingRows(accounts, accountId);
+            long[] ids = version == 1 ? select(allIds, rows) : readLongs(in, count, rows);
+            long[] seconds = readLongs(in, count, rows);
+            int[] nanos = new int[rows.length];
+            for (int i = 0, k = 0; i < count; i++) {
+                int value = in.readInt();
+                if (k < rows.length && rows[k] == i) nanos[k++] = value;
+            }
+            long[] amounts = readLongs(in, count, rows);
+            byte[] types = new byte[rows.length];
+            for (int i = 0, k = 0; i < count; i++) {
+                byte value = in.readByte();
+                if (k < rows.length && rows[k] == i) types[k++] = value;
+            }
+            long[] counterparties = readLongs(in, count, rows);
+            String[] descriptions = new String[rows.length];
+            if (version != 1) {
+                for (int i = 0, k = 0; i < count; i++) {
+                    if (k < rows.length && rows[k] == i) {
+                        descriptions[k++] = in.readUTF();
+                    } else {
+                        in.skipBytes(in.readUnsignedShort());
+                    }
+                }
+            }
+
+            TransactionType[] typeValues = TransactionType.values();
+            List<TransactionRecord> records = new ArrayList<>(rows.length);
+            for (int k = 0; k < rows.length; k++) {
+                Account account = new Account();
+                account.setAccountNumber(accounts[rows[k]]);
+                TransactionRecord record = new TransactionRecord(account,
+                        LocalDateTime.ofEpochSecond(seconds[k], nanos[k], ZoneOffset.UTC),
+                        BigDecimal.valueOf(amounts[k], 2),
+                        typeValues[types[k]],
+                        counterparties[k] == NO_COUNTERPARTY ? null : counterparties[k]);
+                record.setTransactionId(ids[k]);
+                // Version 1 files were only written with the type name as description
+                if (descriptions[k] != null) {
+                    record.setDescription(descriptions[k]);
+                }
+                records.add(record);
+            }
+            return records;
+        }
+    }
+
+    private static int[] matchingRows(long[] accounts, Long accountId) {
+        int[] rows = new int[accounts.length];
+        int matched = 0;
+        for (int i = 0; i < accounts.length; i++) {
+            if (accountId == null || accounts[i] == accountId) rows[matched++] = i;
+        }
+        return Arrays.copyOf(rows, matched);
+    }
+
+    // Reads a whole block of longs, keeping only the values at the given ascending rows (all when null)
+    private static long[] readLongs(DataInputStream in, int count, int[] rows) throws IOException {
+        long[] values = new long[rows == null ? count : rows.length];
+        for (int i = 0, k = 0; i < count; i++) {
+            long value = in.readLong();
+            if (rows == null) {
+                values[i] = value;
+            } else if (k < rows.length && rows[k] == i) {
+                values[k++] = value;
+            }
+        }
+        return values;
+    }
+
+    private static long[] select(long[] values, int[] rows) {
+        long[] selected = new long[rows.length];
+        for (int k = 0; k < rows.length; k++) selected[k] = values[rows[k]];
+        return selected;
+    }
+
+    private Path fileFor(YearMonth month) {
+        return directory.resolve("transactions-" + month.format(MONTH_FORMAT) + ".bin.gz");
+    }
+
+    // One buffer per column so each block of the file holds a single field for every row
+    private static final class Columns {
+        private final ByteArrayOutputStream[] buffers = new ByteArrayOutputStream[8];
+        private final DataOutputStream accounts, ids, seconds, nanos, amounts, types, counterparties, descriptions;
+        private int count;
+
+        Columns() {
+            for (int i = 0; i < buffers.length; i++) buffers[i] = new ByteArrayOutputStream();
+            accounts = new DataOutputStream(buffers[0]);
+            ids = new DataOutputStream(buffers[1]);
+            seconds = new DataOutputStream(buffers[2]);
+            nanos = new DataOutputStream(buffers[3]);
+            amounts = new DataOutputStream(buffers[4]);
+            types = new DataOutputStream(buffers[5]);
+            counterparties = new DataOutputStream(buffers[6]);
+            descriptions = new DataOutputStream(buffers[7]);
+        }
+
+        // The description is kept as written: rows from before counterparty_account existed carry it only there
+        void add(long id, long account, LocalDateTime date, BigDecimal amount, TransactionType type, Long counterparty,
+                 String description) throws IOException {
+            accounts.writeLong(account);
+            ids.writeLong(id);
+            seconds.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+            nanos.writeInt(date.getNano());
+            amounts.writeLong(amount.setScale(2).unscaledValue().longValueExact());
+            types.writeByte(type.ordinal());
+            counterparties.writeLong(counterparty == null ? NO_COUNTERPARTY : counterparty);
+            descriptions.writeUTF(description);
+            count++;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(count);
+            for (ByteArrayOutputStream buffer : buffers) buffer.writeTo(out);
+        }
+    }
 }
 
 class InsufficientFundsException extends Exception {
@@ -309,11 +1186,24 @@ class InsufficientFundsException extends Exception {
     }
 }
 
+class AccountNotFoundException extends Exception {
+    public AccountNotFoundException(String message) {
+        super(message);
+    }
+}
+
+class VelocityLimitExceededException extends Exception {
+    public VelocityLimitExceededException(String message) {
+        super(message);
+    }
+}
+
 public class BankingApp {
 
     public static void main(String[] args) {
         AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig.class);
         BankingService bankingService = context.getBean(BankingService.class);
+        TransactionArchive transactionArchive = context.getBean(TransactionArchive.class);
         SessionFactory sessionFactory = context.getBean(SessionFactory.class);
 
         // Initialize some accounts
@@ -340,6 +1230,8 @@ public class BankingApp {
             System.out.println("2. Deposit Money");
             System.out.println("3. Withdraw Money");
             System.out.println("4. Check Account Balance");
+            System.out.println("5. Account Statement");
+            System.out.println("6. Archive Old Transactions");
             System.out.println("0. Exit");
             System.out.print("Enter your choice: ");
             choice = scanner.nextInt();
@@ -355,20 +1247,29 @@ public class BankingApp {
                         System.out.print("Enter amount to transfer: ");
                         BigDecimal transferAmount = scanner.nextBigDecimal();
                         bankingService.transferMoney(fromAccount, toAccount, transferAmount);
+                        System.out.println("Successfully transferred " + transferAmount + " from account " + fromAccount + " to " + toAccount);
                         break;
                     case 2:
                         System.out.print("Enter account number to deposit into: ");
                         Long depositAccount = scanner.nextLong();
                         System.out.print("Enter amount to deposit: ");
                         BigDecimal depositAmount = scanner.nextBigDecimal();
-                        bankingService.deposit(depositAccount, depositAmount);
+                        if (bankingService.deposit(depositAccount, depositAmount)) {
+                            System.out.println("Successfully deposited " + depositAmount + " into account " + depositAccount);
+                        } else {
+                            System.out.println("Account not found: " + depositAccount);
+                        }
                         break;
                     case 3:
                         System.out.print("Enter account number to withdraw from: ");
                         Long withdrawAccount = scanner.nextLong();
                         System.out.print("Enter amount to withdraw: ");
                         BigDecimal withdrawAmount = scanner.nextBigDecimal();
-                        bankingService.withdraw(withdrawAccount, withdrawAmount);
+                        if (bankingService.withdraw(withdrawAccount, withdrawAmount)) {
+                            System.out.println("Successfully withdrew " + withdrawAmount + " from account " + withdrawAccount);
+                        } else {
+                            System.out.println("Account not found: " + withdrawAccount);
+                        }
                         break;
                     case 4:
                         System.out.print("Enter account number to check balance: ");
@@ -380,13 +1281,31 @@ public class BankingApp {
                             System.out.println("Account not found.");
                         }
                         break;
+                    case 5:
+                        System.out.print("Enter account number for statement: ");
+                        Long statementAccount = scanner.nextLong();
+                        System.out.print("Enter number of months to include: ");
+                        int months = scanner.nextInt();
+                        LocalDateTime now = LocalDateTime.now();
+                        List<TransactionRecord> statement = transactionArchive.statement(statementAccount, now.minusMonths(months), now);
+                        if (statement.isEmpty()) {
+                            System.out.println("No transactions found.");
+                        }
+                        for (TransactionRecord record : statement) {
+                            System.out.println(record);
+                        }
+                        break;
+                    case 6:
+                        int archivedMonths = transactionArchive.archiveColdMonths();
+                        System.out.println("Archived " + archivedMonths + " month(s) of transactions.");
+                        break;
                     case 0:
                         System.out.println("Exiting banking system.");
                         break;
                     default:
                         System.out.println("Invalid choice.");
                 }
-            } catch (InsufficientFundsException e) {
+            } catch (InsufficientFundsException | VelocityLimitExceededException | AccountNotFoundException e) {
                 System.err.println("Error: " + e.getMessage());
             } catch (Exception e) {
                 System.err.println("An unexpected error occurred: " + e.getMessage());
@@ -66,6 +66,9 @@ public class HibernateCRUDApp {
 
     private static SessionFactory sessionFactory;
 
+    // Run with -Dcrud.quiet=true to skip the per-operation console output
+    private static final boolean QUIET = Boolean.getBoolean("crud.quiet");
+
     static {
         try {
             // 1. Configure Hibernate using hibernate.cfg.xml (place this file in the src/main/resources folder)
@@ -86,7 +89,7 @@ public class HibernateCRUDApp {
             tx = session.beginTransaction();
             session.save(student);
             tx.commit();
-            System.out.println("Student created: " + student);
+            if (!QUIET) System.out.println("Student created: " + student);
         } catch (Exception e) {
             if (tx != null) tx.rollback();
             e.printStackTrace();
@@ -99,10 +102,12 @@ public class HibernateCRUDApp {
         Session session = sessionFactory.openSession();
         try {
             Student student = session.get(Student.class, id);
-            if (student != null) {
-                System.out.println("Student found: " + student);
-            } else {
-                System.out.println("Student with ID " + id + " not found.");
+            if (!QUIET) {
+                if (student != null) {
+                    System.out.println("Student found: " + student);
+                } else {
+                    System.out.println("Student with ID " + id + " not found.");
+                }
             }
             return student;
         } catch (Exception e) {
@@ -124,8 +129,8 @@ public class HibernateCRUDApp {
                 student.setAge(newAge);
                 session.update(student);
                 tx.commit();
-                System.out.println("Student updated: " + student);
-            } else {
+                if (!QUIET) System.out.println("Student updated: " + student);
+            } else if (!QUIET) {
                 System.out.println("Student with ID " + id + " not found, cannot update.");
             }
         } catch (Exception e) {
@@ -145,8 +150,8 @@ public class HibernateCRUDApp {
             if (student != null) {
                 session.delete(student);
                 tx.commit();
-                System.out.println("Student deleted with ID: " + id);
-            } else {
+                if (!QUIET) System.out.println("Student deleted with ID: " + id);
+            } else if (!QUIET) {
                 System.out.println("Student with ID " + id + " not found, cannot delete.");
             }
         } catch (Exception e) {